@@ -6,20 +6,30 @@ import java.io.*;
 import java.net.Socket;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 public class Client extends JFrame implements ActionListener, Runnable {
+    private static final int DEFAULT_RECONNECT_DELAY_MS = 1000;
+    private static final int MIN_RECONNECT_DELAY_MS = 250;
+    private static final int RECONNECT_ATTEMPTS = 5;
+
     private final String serverAddress;
     private final int serverPort;
     private final String username;
     private final Color themeColor;
     private final String chatType;
     private String selectedUser = null;
+    private volatile int reconnectDelayMs = -1;
+    // Between the server's reconnect hint and a successful reconnect; the old connection can't deliver
+    private volatile boolean restarting = false;
+    private volatile boolean disconnected = false;
 
-    private Socket socket;
-    private DataInputStream dis;
-    private DataOutputStream dos;
+    // Swapped by the reader thread on reconnect while the EDT keeps sending
+    private volatile Socket socket;
+    private volatile DataInputStream dis;
+    private volatile DataOutputStream dos;
 
     private JTextArea chatArea;
     private JTextField messageField;
@@ -190,6 +200,10 @@ public class Client extends JFrame implements ActionListener, Runnable {
     private void sendTextMessage() {
         String message = messageField.getText().trim();
         if (!message.isEmpty()) {
+            if (restarting) {
+                JOptionPane.showMessageDialog(this, "Server restarting, message not sent.\nTry again in a moment.");
+                return;
+            }
             try {
                 if (chatType.equals("INDIVIDUAL")) {
                     if (selectedUser == null) {
@@ -218,6 +232,10 @@ public class Client extends JFrame implements ActionListener, Runnable {
     }
 
     private void sendImage() {
+        if (restarting) {
+            JOptionPane.showMessageDialog(this, "Server restarting, image not sent.\nTry again in a moment.");
+            return;
+        }
         JFileChooser fileChooser = new JFileChooser();
         int result = fileChooser.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
@@ -253,29 +271,92 @@ public class Client extends JFrame implements ActionListener, Runnable {
     }
 
     private void disconnect() {
+        disconnected = true;
         try {
-            dos.writeUTF("DISCONNECT");
-            socket.close();
-            dispose();
+            if (!socket.isClosed()) {
+                dos.writeUTF("DISCONNECT");
+            }
         } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "Error disconnecting");
+            // Server already gone (e.g. restarting); still close and leave
+            System.out.println("Could not send disconnect: " + e.getMessage());
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            dispose();
         }
     }
 
     public void run() {
+        do {
+            try {
+                while (true) {
+                    String message = dis.readUTF();
+                    handleServerMessage(message);
+                }
+            } catch (IOException e) {
+                System.out.println("Disconnected from server");
+            }
+        } while (reconnectDelayMs >= 0 && !disconnected && reconnect());
+    }
+
+    // The server is restarting; a new process will take over the port shortly
+    private boolean reconnect() {
+        int delay = Math.max(reconnectDelayMs, MIN_RECONNECT_DELAY_MS);
+        reconnectDelayMs = -1;
         try {
-            while (true) {
-                String message = dis.readUTF();
-                handleServerMessage(message);
+            socket.close();
+        } catch (IOException ignored) {
+        }
+        SwingUtilities.invokeLater(() -> chatArea.append("--- Server restarting, reconnecting... ---\n"));
+
+        for (int attempt = 0; attempt < RECONNECT_ATTEMPTS; attempt++) {
+            try {
+                // Jitter so every client doesn't hit the new process in the same instant
+                long backoff = delay * (attempt + 1L);
+                Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff));
+                if (disconnected) {
+                    return false;
+                }
+                Socket newSocket = new Socket(serverAddress, serverPort);
+                DataOutputStream newDos = new DataOutputStream(newSocket.getOutputStream());
+                newDos.writeUTF(username);
+                dis = new DataInputStream(newSocket.getInputStream());
+                socket = newSocket;
+                dos = newDos;
+                if (disconnected) {
+                    newSocket.close();
+                    return false;
+                }
+                restarting = false;
+                SwingUtilities.invokeLater(() -> chatArea.append("--- Reconnected ---\n"));
+                return true;
+            } catch (IOException e) {
+                System.out.println("Reconnect attempt " + (attempt + 1) + " failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
             }
-        } catch (IOException e) {
-            System.out.println("Disconnected from server");
         }
+        SwingUtilities.invokeLater(() ->
+            JOptionPane.showMessageDialog(this, "Could not reconnect to server"));
+        return false;
     }
 
     private void handleServerMessage(String message) {
         String[] parts = message.split("\\|", 5);
         String type = parts[0];
+
+        if (type.equals("RECONNECT")) {
+            restarting = true;
+            try {
+                reconnectDelayMs = Integer.parseInt(parts[1]);
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                reconnectDelayMs = DEFAULT_RECONNECT_DELAY_MS;
+            }
+            return;
+        }
         
         SwingUtilities.invokeLater(() -> {
             switch (type) {
@@ -1,30 +1,128 @@
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.io.*;
+import java.lang.management.ManagementFactory;
 
 public class Server {
     private static final int PORT = 6001;
     private static final Map<String, ClientHandler> clients = new HashMap<>();
     private static final Map<String, Group> groups = new HashMap<>();
+    // Every live connection, including ones that have not sent their username yet
+    private static final Set<ClientHandler> handlers = ConcurrentHashMap.newKeySet();
+
+    // How long clients should wait before reconnecting, and how long we wait for them to hang up
+    private static final int RECONNECT_DELAY_MS = Integer.getInteger("chat.reconnectDelayMs", 1000);
+    private static final int DRAIN_TIMEOUT_MS = Integer.getInteger("chat.drainTimeoutMs", 5000);
+    // Lets a new server process bind the port while this one drains (hot restart)
+    private static final boolean REUSE_PORT = Boolean.getBoolean("chat.reusePort");
+
+    private static volatile boolean running = true;
+    private static volatile ServerSocket serverSocket;
+    // Released once main has left the accept loop, so no handler can be added after the drain snapshot
+    private static final CountDownLatch acceptLoopDone = new CountDownLatch(1);
 
     public static void main(String[] args) {
-        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
-            System.out.println("Server started on port " + PORT);
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        try (ServerSocket ss = openServerSocket()) {
+            serverSocket = ss;
+            Runtime.getRuntime().addShutdownHook(new Thread(Server::shutdown, "server-drain"));
+            // JVM start to listening socket: the cold-start-to-ready time
+            System.out.println("Server ready on port " + PORT + " "
+                    + (System.currentTimeMillis() - jvmStart) + " ms after JVM start");
             
-            while (true) {
-                Socket socket = serverSocket.accept();
-                new ClientHandler(socket).start();
+            while (running) {
+                Socket socket = ss.accept();
+                ClientHandler handler = new ClientHandler(socket);
+                handlers.add(handler);
+                handler.start();
             }
         } catch (IOException e) {
-            System.err.println("Server error: " + e.getMessage());
+            // accept() fails with a SocketException once shutdown() closes the listener
+            if (running) {
+                System.err.println("Server error: " + e.getMessage());
+            }
+        } finally {
+            acceptLoopDone.countDown();
+        }
+    }
+
+    private static ServerSocket openServerSocket() throws IOException {
+        ServerSocket ss = new ServerSocket();
+        try {
+            ss.setReuseAddress(true);
+            if (REUSE_PORT) {
+                if (ss.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                    ss.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                } else {
+                    System.err.println("SO_REUSEPORT not supported on this platform, ignoring chat.reusePort");
+                }
+            }
+            ss.bind(new InetSocketAddress(PORT));
+            return ss;
+        } catch (IOException e) {
+            ss.close();
+            throw e;
+        }
+    }
+
+    // Stop accepting, tell every client to reconnect, then close their connections
+    private static void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        System.out.println("Server draining connections...");
+
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing server socket");
+        }
+
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        try {
+            acceptLoopDone.await(DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<ClientHandler> draining = new ArrayList<>(handlers);
+
+        // Hints go out on their own threads so a client that stopped reading can't stall the hook
+        for (ClientHandler handler : draining) {
+            Thread hint = new Thread(handler::sendReconnectHint, "drain-hint");
+            hint.setDaemon(true);
+            hint.start();
+        }
+
+        for (ClientHandler handler : draining) {
+            long remaining = deadline - System.currentTimeMillis();
+            try {
+                if (remaining > 0) {
+                    handler.join(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Past the deadline: closing the socket also unblocks any write stuck on a slow peer
+        for (ClientHandler handler : draining) {
+            handler.closeSocket();
         }
+        System.out.println("Server stopped, drained " + draining.size() + " client(s)");
     }
 
     private static void broadcastUserList() {
         String userList = String.join(",", clients.keySet());
         clients.values().forEach(client -> {
             try {
-                client.dos.writeUTF("USER_LIST|" + userList);
+                client.send("USER_LIST|" + userList);
             } catch (IOException e) {
                 System.err.println("Error sending user list");
             }
@@ -34,9 +132,14 @@ public class Server {
     static class ClientHandler extends Thread {
         private final Socket socket;
         private DataInputStream dis;
-        private DataOutputStream dos;
+        private volatile DataOutputStream dos;
         private String username;
         private String currentGroup;
+        // Guards writes to dos and the draining flag. Not the handler's own monitor: Thread.join()
+        // locks that, and the shutdown hook joins handlers while they may be stuck writing.
+        private final Object sendLock = new Object();
+        // Set once the reconnect hint has gone out
+        private boolean draining;
 
         public ClientHandler(Socket socket) {
             this.socket = socket;
@@ -74,6 +177,8 @@ public class Server {
                 }
             } catch (IOException e) {
                 disconnect();
+            } finally {
+                handlers.remove(this);
             }
         }
         
@@ -110,10 +215,12 @@ public class Server {
                 String groupName = parts[2];  // Should be "General" if sent by the client.
                 Group group = groups.get(groupName);
                 if (group != null) {
-                    group.broadcast("TEXT|GROUP|" + groupName + "|" + username + "|" + content);
+                    if (!group.broadcast("TEXT|GROUP|" + groupName + "|" + username + "|" + content)) {
+                        reportUndelivered();
+                    }
                 } else {
                     try {
-                        dos.writeUTF("ERROR|Group not found: " + groupName);
+                        send("ERROR|Group not found: " + groupName);
                     } catch (IOException e) {
                         System.err.println("Error sending group not found message");
                     }
@@ -123,7 +230,9 @@ public class Server {
                 ClientHandler recipientHandler = clients.get(recipient);
                 if (recipientHandler != null) {
                     try {
-                        recipientHandler.dos.writeUTF("TEXT|INDIVIDUAL|" + username + "||" + content);
+                        if (!recipientHandler.send("TEXT|INDIVIDUAL|" + username + "||" + content)) {
+                            reportUndelivered();
+                        }
                     } catch (IOException e) {
                         System.err.println("Error sending private message");
                     }
@@ -142,10 +251,12 @@ public class Server {
                 String groupName = parts[2];
                 Group group = groups.get(groupName);
                 if (group != null) {
-                    group.broadcast("IMAGE|GROUP|" + groupName + "|" + username + "|" + imageData);
+                    if (!group.broadcast("IMAGE|GROUP|" + groupName + "|" + username + "|" + imageData)) {
+                        reportUndelivered();
+                    }
                 } else {
                     try {
-                        dos.writeUTF("ERROR|Group not found: " + groupName);
+                        send("ERROR|Group not found: " + groupName);
                     } catch (IOException e) {
                         System.err.println("Error sending group not found message");
                     }
@@ -155,7 +266,9 @@ public class Server {
                 ClientHandler recipientHandler = clients.get(recipient);
                 if (recipientHandler != null) {
                     try {
-                        recipientHandler.dos.writeUTF("IMAGE|INDIVIDUAL|" + username + "||" + imageData);
+                        if (!recipientHandler.send("IMAGE|INDIVIDUAL|" + username + "||" + imageData)) {
+                            reportUndelivered();
+                        }
                     } catch (IOException e) {
                         System.err.println("Error sending private image");
                     }
@@ -178,7 +291,7 @@ public class Server {
                 group.broadcast("TEXT|GROUP|" + currentGroup + "|System|" + username + " has joined the group");
             } else {
                 try {
-                    dos.writeUTF("ERROR|Group is full (max 5 members)");
+                    send("ERROR|Group is full (max 5 members)");
                 } catch (IOException e) {
                     System.err.println("Error sending group full message");
                 }
@@ -203,15 +316,72 @@ public class Server {
             }
         }
 
+        // All writes to this client go through here so frames from different threads don't interleave.
+        // Returns false if the client has already been told to reconnect and the message was not sent.
+        boolean send(String message) throws IOException {
+            synchronized (sendLock) {
+                if (draining || dos == null) {
+                    return false;
+                }
+                dos.writeUTF(message);
+                return true;
+            }
+        }
+
+        // Tell the sender a message was dropped because a recipient is already reconnecting
+        private void reportUndelivered() {
+            try {
+                send("ERROR|Server restarting, message not delivered");
+            } catch (IOException e) {
+                System.err.println("Error sending undelivered notice to " + username);
+            }
+        }
+
+        // Writes are synchronous and unbuffered, so everything sent before the hint is already
+        // on the wire; send the hint, then half-close so the client sees EOF
+        void sendReconnectHint() {
+            synchronized (sendLock) {
+                draining = true;
+                try {
+                    if (dos == null) {
+                        // Connected but no username yet; run() has not set up the output stream
+                        dos = new DataOutputStream(socket.getOutputStream());
+                    }
+                    dos.writeUTF("RECONNECT|" + RECONNECT_DELAY_MS);
+                } catch (IOException e) {
+                    System.err.println("Error sending reconnect hint to " + username);
+                    return;
+                }
+                try {
+                    socket.shutdownOutput();
+                } catch (IOException e) {
+                    // Client already read the hint and hung up
+                }
+            }
+        }
+
+        void closeSocket() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                System.err.println("Error closing socket for " + username);
+            }
+        }
+
         private void updateGroupList() {
             try {
-                dos.writeUTF("GROUP_LIST|" + String.join(",", groups.keySet()));
+                send("GROUP_LIST|" + String.join(",", groups.keySet()));
             } catch (IOException e) {
                 System.err.println("Error updating group list");
             }
         }
 
         private void disconnect() {
+            // While draining, every client is leaving; skip the group/user list broadcasts
+            if (!running) {
+                closeSocket();
+                return;
+            }
             try {
                 handleGroupLeave();
                 synchronized(clients) {
@@ -237,17 +407,22 @@ public class Server {
             members.remove(user);
         }
 
-        void broadcast(String message) {
-            members.forEach(member -> {
+        // Returns false if any member was already reconnecting and did not get the message
+        boolean broadcast(String message) {
+            boolean delivered = true;
+            for (String member : members) {
                 ClientHandler client = clients.get(member);
                 if (client != null) {
                     try {
-                        client.dos.writeUTF(message);
+                        if (!client.send(message)) {
+                            delivered = false;
+                        }
                     } catch (IOException e) {
                         System.err.println("Error broadcasting to group");
                     }
                 }
-            });
+            }
+            return delivered;
         }
     }
 }
\ No newline at end of file